@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import de.dhbw.astar.AStar;
+import de.dhbw.astar.ReachabilityIndex;
 import de.dhbw.datareader.DataReader;
 import de.dhbw.exceptions.InvalidArgumentException;
 import de.dhbw.exceptions.InvalidNodeException;
@@ -42,11 +43,14 @@ public class AStarAlgorithmApplication {
         TerritoryMap territoryMap = createTerritoryMap(args);
         Node startNode = createStartNode(args);
         List<Node> terminalNodes = createTerminalNodes(args);
-        AStar aStar = new AStar();
+        AStar aStar = new AStar(new ReachabilityIndex(territoryMap));
 
         System.out.println("Searching Path from " + startNode + " to " + terminalNodes + " ...");
 
         List<Node> path = aStar.run(territoryMap, startNode, terminalNodes);
+        if (path.isEmpty()) {
+            return;
+        }
 
         System.out.println("Path: " + path);
         System.out.println("Total Costs: " + path.get(path.size() - 1).getGValue());
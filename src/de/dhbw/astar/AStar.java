@@ -2,9 +2,13 @@ package de.dhbw.astar;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import de.dhbw.exceptions.NodeOutOfBoundsException;
+import de.dhbw.model.Neighbourhood;
 import de.dhbw.model.Node;
 import de.dhbw.model.TerritoryMap;
 
@@ -15,6 +19,53 @@ import de.dhbw.model.TerritoryMap;
  */
 public class AStar {
 
+    private static final double DEFAULT_QUANTIZATION_SCALE = 1000;
+
+    private ReachabilityIndex reachabilityIndex;
+    private SearchMode searchMode = SearchMode.LIST_SCAN;
+    private double quantizationScale = DEFAULT_QUANTIZATION_SCALE;
+
+    /**
+     * Creates an AStar instance that searches without checking the reachability of the terminal {@link Node}s first.
+     */
+    public AStar() {
+    }
+
+    /**
+     * Creates an AStar instance that removes unreachable terminal {@link Node}s before the search starts.
+     *
+     * @param reachabilityIndex
+     *            the {@link ReachabilityIndex} of the {@link TerritoryMap}s that will be searched
+     */
+    public AStar(ReachabilityIndex reachabilityIndex) {
+        this.reachabilityIndex = reachabilityIndex;
+    }
+
+    /**
+     * Sets how the open list is managed. The default is {@link SearchMode#LIST_SCAN}.
+     *
+     * @param searchMode
+     *            the {@link SearchMode}
+     */
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    /**
+     * Sets the number of fixed-point units per cost unit for {@link SearchMode#QUANTIZED}. The default is 1000.
+     *
+     * @param quantizationScale
+     *            the number of fixed-point units per cost unit
+     * @throws IllegalArgumentException
+     *             if the scale is not positive or a single cost unit would not fit into a long
+     */
+    public void setQuantizationScale(double quantizationScale) {
+        if (!(quantizationScale > 0) || quantizationScale >= Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid quantization scale " + quantizationScale);
+        }
+        this.quantizationScale = quantizationScale;
+    }
+
     /**
      * Finds the shortest path from a start {@link Node} to a terminal {@link Node}s.
      *
@@ -28,20 +79,83 @@ public class AStar {
      *         returned.
      * @throws NodeOutOfBoundsException
      *             if one of the inserted {@link Node}s is not within the bounds of the {@link TerritoryMap}
+     * @throws IllegalArgumentException
+     *             if the {@link ReachabilityIndex} of this instance indexes another {@link TerritoryMap}
      */
     public List<Node> run(TerritoryMap territoryMap, Node startNode, List<Node> terminalNodes)
         throws NodeOutOfBoundsException {
+        SearchResult result = this.search(territoryMap, startNode, terminalNodes, new SearchLimits(),
+            new CancellationToken());
+        return result.isComplete() ? result.getPath() : new ArrayList<Node>();
+    }
+
+    /**
+     * Finds the shortest path from a start {@link Node} to a terminal {@link Node}s within the given
+     * {@link SearchLimits}. The search also stops as soon as the {@link CancellationToken} is cancelled.
+     *
+     * @param territoryMap
+     *            an array with the {@link TerritoryMap}
+     * @param startNode
+     *            a {@link Node} that represents the start
+     * @param terminalNodes
+     *            the {@link Node}s that represent the goals
+     * @param limits
+     *            the {@link SearchLimits} of this search
+     * @param cancellationToken
+     *            the {@link CancellationToken} that can stop this search
+     * @return a {@link SearchResult} with the shortest path, with an empty path if no path exists, or, if the search
+     *         has been stopped by a limit or the {@link CancellationToken}, with the best partial path toward the
+     *         closest terminal {@link Node}
+     * @throws NodeOutOfBoundsException
+     *             if one of the inserted {@link Node}s is not within the bounds of the {@link TerritoryMap}
+     * @throws IllegalArgumentException
+     *             if the {@link ReachabilityIndex} of this instance indexes another {@link TerritoryMap}
+     */
+    public SearchResult search(TerritoryMap territoryMap, Node startNode, List<Node> terminalNodes,
+        SearchLimits limits, CancellationToken cancellationToken) throws NodeOutOfBoundsException {
 
+        long start = System.nanoTime(); // The deadline includes the preparation of the search
+        if (this.reachabilityIndex != null && this.reachabilityIndex.getTerritoryMap() != territoryMap) {
+            throw new IllegalArgumentException("The ReachabilityIndex does not belong to this TerritoryMap!");
+        }
         territoryMap.checkNodeMembership(startNode);
         territoryMap.checkNodeMembership(terminalNodes);
 
+        if (terminalNodes.isEmpty()) {
+            System.out.println("Found No Solution!");
+            return new SearchResult(StopReason.NO_PATH, new ArrayList<Node>(), 0);
+        }
+
+        // An impassable start cannot be left, which is also how the ReachabilityIndex labels it
+        if (!territoryMap.isPassable(startNode.getXCoordinate(), startNode.getYCoordinate())) {
+            System.out.println("Found No Solution!");
+            return new SearchResult(StopReason.NO_PATH, new ArrayList<Node>(), 0);
+        }
+
+        if (this.reachabilityIndex != null) {
+            terminalNodes = this.reachabilityIndex.filterReachable(startNode, terminalNodes);
+            if (terminalNodes.isEmpty()) {
+                System.out.println("Found No Solution!");
+                return new SearchResult(StopReason.NO_PATH, new ArrayList<Node>(), 0);
+            }
+        }
+
         territoryMap.reset(); // Make sure the territory map does not contain junk data
+        SearchMonitor monitor = new SearchMonitor(limits, cancellationToken, terminalNodes, start);
+
+        if (this.searchMode == SearchMode.QUANTIZED) {
+            return this.searchQuantized(territoryMap, startNode, terminalNodes, monitor);
+        }
+        if (this.searchMode == SearchMode.PRIORITY_QUEUE) {
+            return this.searchPriorityQueue(territoryMap, startNode, terminalNodes, monitor);
+        }
 
         List<Node> openList = new ArrayList<>();
         List<Node> closedList = new ArrayList<>();
         openList.add(startNode);
 
         startNode.setFValue(this.estimateCosts(startNode, terminalNodes));
+        Neighbourhood neighbourhood = new Neighbourhood();
 
         while (!openList.isEmpty()) {
             Node optimalNode = getNodeWithLowestFValue(openList);
@@ -50,19 +164,28 @@ public class AStar {
             if (terminalNodes.contains(optimalNode)) {
                 System.out.println("Found Solution!");
                 Collections.reverse(optimalNode.getPath());
-                return optimalNode.getPath();
+                return new SearchResult(StopReason.FOUND, optimalNode.getPath(), monitor.getExpansions());
+            }
+            StopReason stopReason = monitor.expand(optimalNode, openList.size() + closedList.size());
+            if (stopReason != null) {
+                return this.stop(stopReason, monitor);
             }
             double factor = calculatePathFactor(optimalNode.getPath());
-            for (Node successor : territoryMap.getNeighbours(optimalNode)) {
-                double gValue = optimalNode.getGValue() + successor.getKValue() * factor;
+            territoryMap.collectNeighbours(optimalNode, neighbourhood);
+            for (int i = 0; i < neighbourhood.size(); i++) {
+                Node successor = neighbourhood.getNode(i);
+                double gValue = optimalNode.getGValue()
+                    + successor.getKValue() * neighbourhood.getStepFactor(i) * factor;
                 double fValue = this.estimateCosts(successor, terminalNodes) + gValue;
                 if (!openList.contains(successor) && !closedList.contains(successor)) {
                     openList.add(successor);
                     successor.addToPath(optimalNode.getPath());
                     successor.setGValue(gValue);
                     successor.setFValue(fValue);
+                    monitor.addPathEntries(optimalNode.getPath().size());
                 } else if (openList.contains(successor) && !closedList.contains(successor)
                     && gValue < successor.getGValue()) {
+                    monitor.addPathEntries(optimalNode.getPath().size() - successor.getPath().size() + 1);
                     successor.resetPath();
                     successor.addToPath(optimalNode.getPath());
                     successor.setGValue(gValue);
@@ -70,8 +193,208 @@ public class AStar {
                 }
             }
         }
-        System.out.println("Found No Solution!");
-        return new ArrayList<Node>();
+        return this.stop(StopReason.NO_PATH, monitor);
+    }
+
+    /**
+     * Creates the {@link SearchResult} of a search that has not reached a terminal {@link Node}. If no path exists, the
+     * path is empty like for a query that has been rejected before the search; otherwise it is the best partial path.
+     *
+     * @param stopReason
+     *            the reason why the search has stopped
+     * @param monitor
+     *            the {@link SearchMonitor} of the search
+     * @return the {@link SearchResult} with an empty or the best partial path
+     */
+    private SearchResult stop(StopReason stopReason, SearchMonitor monitor) {
+        if (stopReason == StopReason.NO_PATH) {
+            System.out.println("Found No Solution!");
+            return new SearchResult(stopReason, new ArrayList<Node>(), monitor.getExpansions());
+        }
+        System.out.println("Stopped Search: " + stopReason);
+        return new SearchResult(stopReason, monitor.getClosestPath(), monitor.getExpansions());
+    }
+
+    /**
+     * Finds the shortest path like {@link #search(TerritoryMap, Node, List, SearchLimits, CancellationToken)}, but with
+     * g and f values that are multiples of the fixed-point unit and a {@link RadixHeap} as open list. Improved
+     * {@link Node}s are pushed again instead of being moved within the heap, and outdated entries are skipped because
+     * their {@link Node} is already closed.
+     *
+     * @param territoryMap
+     *            the {@link TerritoryMap}
+     * @param startNode
+     *            a {@link Node} that represents the start
+     * @param terminalNodes
+     *            the {@link Node}s that represent the goals
+     * @param monitor
+     *            the {@link SearchMonitor} that checks the limits of the search
+     * @return a {@link SearchResult} with the shortest path or the best partial path
+     */
+    private SearchResult searchQuantized(TerritoryMap territoryMap, Node startNode, List<Node> terminalNodes,
+        SearchMonitor monitor) {
+        RadixHeap openList = new RadixHeap();
+        Set<Node> openNodes = new HashSet<>();
+        Set<Node> closedNodes = new HashSet<>();
+
+        long startFValue = this.quantize(this.estimateCosts(startNode, terminalNodes));
+        startNode.setFValue(startFValue / this.quantizationScale);
+        openList.push(startFValue, startNode);
+        openNodes.add(startNode);
+        Neighbourhood neighbourhood = new Neighbourhood();
+
+        while (!openList.isEmpty()) {
+            Node optimalNode = openList.pop();
+            if (!closedNodes.add(optimalNode)) {
+                continue;
+            }
+            openNodes.remove(optimalNode);
+            if (terminalNodes.contains(optimalNode)) {
+                System.out.println("Found Solution!");
+                double quantizationErrorBound = this.calculateQuantizationErrorBound(optimalNode);
+                Collections.reverse(optimalNode.getPath());
+                return new SearchResult(StopReason.FOUND, optimalNode.getPath(), monitor.getExpansions(),
+                    quantizationErrorBound);
+            }
+            StopReason stopReason = monitor.expand(optimalNode, openList.size() + closedNodes.size());
+            if (stopReason != null) {
+                return this.stop(stopReason, monitor);
+            }
+            double factor = calculatePathFactor(optimalNode.getPath());
+            long optimalGValue = this.quantize(optimalNode.getGValue());
+            territoryMap.collectNeighbours(optimalNode, neighbourhood);
+            for (int i = 0; i < neighbourhood.size(); i++) {
+                Node successor = neighbourhood.getNode(i);
+                if (closedNodes.contains(successor)) {
+                    continue;
+                }
+                long gValue = Math.addExact(optimalGValue,
+                    this.quantize(successor.getKValue() * neighbourhood.getStepFactor(i) * factor));
+                long fValue = Math.addExact(this.quantize(this.estimateCosts(successor, terminalNodes)), gValue);
+                boolean isOpen = openNodes.contains(successor);
+                if (isOpen && gValue >= this.quantize(successor.getGValue())) {
+                    continue;
+                }
+                if (isOpen) {
+                    monitor.addPathEntries(1 - successor.getPath().size());
+                    successor.resetPath();
+                }
+                successor.addToPath(optimalNode.getPath());
+                monitor.addPathEntries(optimalNode.getPath().size());
+                successor.setGValue(gValue / this.quantizationScale);
+                successor.setFValue(fValue / this.quantizationScale);
+                openList.push(fValue, successor);
+                openNodes.add(successor);
+            }
+        }
+        return this.stop(StopReason.NO_PATH, monitor);
+    }
+
+    /**
+     * Finds the shortest path like {@link #searchQuantized(TerritoryMap, Node, List, SearchMonitor)}, but with exact g
+     * and f values and a {@link PriorityQueue} as open list.
+     *
+     * @param territoryMap
+     *            the {@link TerritoryMap}
+     * @param startNode
+     *            a {@link Node} that represents the start
+     * @param terminalNodes
+     *            the {@link Node}s that represent the goals
+     * @param monitor
+     *            the {@link SearchMonitor} that checks the limits of the search
+     * @return a {@link SearchResult} with the shortest path or the best partial path
+     */
+    private SearchResult searchPriorityQueue(TerritoryMap territoryMap, Node startNode, List<Node> terminalNodes,
+        SearchMonitor monitor) {
+        PriorityQueue<OpenListEntry> openList = new PriorityQueue<>();
+        Set<Node> openNodes = new HashSet<>();
+        Set<Node> closedNodes = new HashSet<>();
+
+        startNode.setFValue(this.estimateCosts(startNode, terminalNodes));
+        openList.add(new OpenListEntry(startNode.getFValue(), startNode));
+        openNodes.add(startNode);
+        Neighbourhood neighbourhood = new Neighbourhood();
+
+        while (!openList.isEmpty()) {
+            Node optimalNode = openList.poll().getNode();
+            if (!closedNodes.add(optimalNode)) {
+                continue;
+            }
+            openNodes.remove(optimalNode);
+            if (terminalNodes.contains(optimalNode)) {
+                System.out.println("Found Solution!");
+                Collections.reverse(optimalNode.getPath());
+                return new SearchResult(StopReason.FOUND, optimalNode.getPath(), monitor.getExpansions());
+            }
+            StopReason stopReason = monitor.expand(optimalNode, openList.size() + closedNodes.size());
+            if (stopReason != null) {
+                return this.stop(stopReason, monitor);
+            }
+            double factor = calculatePathFactor(optimalNode.getPath());
+            territoryMap.collectNeighbours(optimalNode, neighbourhood);
+            for (int i = 0; i < neighbourhood.size(); i++) {
+                Node successor = neighbourhood.getNode(i);
+                if (closedNodes.contains(successor)) {
+                    continue;
+                }
+                double gValue = optimalNode.getGValue()
+                    + successor.getKValue() * neighbourhood.getStepFactor(i) * factor;
+                double fValue = this.estimateCosts(successor, terminalNodes) + gValue;
+                boolean isOpen = openNodes.contains(successor);
+                if (isOpen && gValue >= successor.getGValue()) {
+                    continue;
+                }
+                if (isOpen) {
+                    monitor.addPathEntries(1 - successor.getPath().size());
+                    successor.resetPath();
+                }
+                successor.addToPath(optimalNode.getPath());
+                monitor.addPathEntries(optimalNode.getPath().size());
+                successor.setGValue(gValue);
+                successor.setFValue(fValue);
+                openList.add(new OpenListEntry(fValue, successor));
+                openNodes.add(successor);
+            }
+        }
+        return this.stop(StopReason.NO_PATH, monitor);
+    }
+
+    /**
+     * Converts costs to fixed-point units by rounding to the nearest unit.
+     *
+     * @param costs
+     *            the costs
+     * @return the costs in fixed-point units
+     * @throws ArithmeticException
+     *             if the costs do not fit into a long with the current scale
+     */
+    private long quantize(double costs) {
+        double scaledCosts = costs * this.quantizationScale;
+        if (!(Math.abs(scaledCosts) < Long.MAX_VALUE)) {
+            throw new ArithmeticException("The costs " + costs + " cannot be quantized with the scale "
+                + this.quantizationScale);
+        }
+        return Math.round(scaledCosts);
+    }
+
+    /**
+     * Calculates the maximal deviation between the quantized and the exact costs of the path to a {@link Node}. The
+     * costs of each step, including the factor of {@link #calculatePathFactor(List)}, are rounded to the nearest
+     * fixed-point unit, so every step is rounded by at most half a unit and the factor adds no rounding error of its
+     * own. The path factor is the product of up to steps / 5 multiplications, each
+     * of which together with the two multiplications of the step costs may add a relative error of one unit in the
+     * last place.
+     *
+     * @param node
+     *            the last {@link Node} of the path
+     * @return the error bound in cost units
+     */
+    private double calculateQuantizationErrorBound(Node node) {
+        int steps = node.getPath().size() - 1;
+        int factorMultiplications = steps / 5;
+        double roundingError = steps * 0.5 / this.quantizationScale;
+        double floatingPointError = node.getGValue() * (factorMultiplications + 2) * Math.ulp(1.0);
+        return roundingError + floatingPointError;
     }
 
     /**
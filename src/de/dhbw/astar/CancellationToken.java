@@ -0,0 +1,27 @@
+package de.dhbw.astar;
+
+/**
+ * A CancellationToken allows another thread to stop a running search. {@link AStar} checks the token once per
+ * expansion and returns the best partial path as soon as it is cancelled.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Requests the cancellation of all searches that use this token.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Checks whether the cancellation has been requested.
+     *
+     * @return true if the token is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+}
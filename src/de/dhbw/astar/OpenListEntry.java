@@ -0,0 +1,34 @@
+package de.dhbw.astar;
+
+import de.dhbw.model.Node;
+
+/**
+ * An OpenListEntry stores a {@link Node} together with the f value it had when it was inserted into the open list of
+ * {@link SearchMode#PRIORITY_QUEUE}. The f value must not be read from the {@link Node}, because it changes when the
+ * {@link Node} is improved while the entry is still in the queue.
+ */
+class OpenListEntry implements Comparable<OpenListEntry> {
+
+    private final double fValue;
+    private final Node node;
+
+    OpenListEntry(double fValue, Node node) {
+        this.fValue = fValue;
+        this.node = node;
+    }
+
+    /**
+     * Returns the {@link Node} of the entry.
+     *
+     * @return node
+     */
+    Node getNode() {
+        return node;
+    }
+
+    @Override
+    public int compareTo(OpenListEntry other) {
+        return Double.compare(this.fValue, other.fValue);
+    }
+
+}
@@ -0,0 +1,140 @@
+package de.dhbw.astar;
+
+import java.util.Arrays;
+
+import de.dhbw.model.Node;
+
+/**
+ * A RadixHeap is a monotone priority queue for {@link Node}s with non-negative integer keys. Each key is stored in the
+ * bucket of the highest bit in which it differs from the last popped key. Popping refills the lowest bucket by
+ * redistributing the smallest non-empty bucket, and every entry can only move to lower buckets, so push and pop run in
+ * amortized constant time for keys of a fixed bit width.
+ * <p>
+ * The heap requires that no key smaller than the last popped key is pushed, which holds for A* with a consistent
+ * heuristic. Violating keys are rejected, because the heap could not pop them in the right order.
+ */
+class RadixHeap {
+
+    private static final int BUCKETS = Long.SIZE + 1;
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private long[][] keys = new long[BUCKETS][INITIAL_BUCKET_CAPACITY];
+    private Node[][] nodes = new Node[BUCKETS][INITIAL_BUCKET_CAPACITY];
+    private int[] sizes = new int[BUCKETS];
+    private int size;
+    private long lastKey;
+
+    /**
+     * Checks whether the heap is empty.
+     *
+     * @return true if the heap contains no {@link Node}
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the number of entries, including outdated entries of {@link Node}s that have been pushed again.
+     *
+     * @return size
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Inserts a {@link Node} with a key.
+     *
+     * @param key
+     *            the key of the {@link Node}
+     * @param node
+     *            the {@link Node} that should be inserted
+     * @throws IllegalArgumentException
+     *             if the key is smaller than the last popped key
+     */
+    void push(long key, Node node) {
+        if (key < this.lastKey) {
+            throw new IllegalArgumentException(
+                "The key " + key + " is smaller than the last popped key " + this.lastKey);
+        }
+        this.add(this.bucketOf(key), key, node);
+        this.size++;
+    }
+
+    /**
+     * Removes a {@link Node} with the smallest key. Entries with equal keys are popped in reverse order of insertion.
+     *
+     * @return the {@link Node} with the smallest key
+     */
+    Node pop() {
+        if (this.sizes[0] == 0) {
+            this.refillFirstBucket();
+        }
+        this.size--;
+        int index = --this.sizes[0];
+        Node node = this.nodes[0][index];
+        this.nodes[0][index] = null;
+        return node;
+    }
+
+    /**
+     * Moves the smallest non-empty bucket into the lower buckets after its minimal key has become the last popped key.
+     * All entries with the minimal key end up in the first bucket.
+     */
+    private void refillFirstBucket() {
+        int bucket = 1;
+        while (this.sizes[bucket] == 0) {
+            bucket++;
+        }
+
+        long[] bucketKeys = this.keys[bucket];
+        Node[] bucketNodes = this.nodes[bucket];
+        int bucketSize = this.sizes[bucket];
+        long minKey = bucketKeys[0];
+        for (int i = 1; i < bucketSize; i++) {
+            minKey = Math.min(minKey, bucketKeys[i]);
+        }
+        this.lastKey = minKey;
+
+        // Every entry moves to a lower bucket, so the arrays of this bucket are not written while they are read
+        this.sizes[bucket] = 0;
+        for (int i = 0; i < bucketSize; i++) {
+            this.add(this.bucketOf(bucketKeys[i]), bucketKeys[i], bucketNodes[i]);
+            bucketNodes[i] = null;
+        }
+    }
+
+    /**
+     * Appends an entry to a bucket and grows the bucket if necessary.
+     *
+     * @param bucket
+     *            the index of the bucket
+     * @param key
+     *            the key of the entry
+     * @param node
+     *            the {@link Node} of the entry
+     */
+    private void add(int bucket, long key, Node node) {
+        int bucketSize = this.sizes[bucket];
+        if (bucketSize == this.keys[bucket].length) {
+            this.keys[bucket] = Arrays.copyOf(this.keys[bucket], bucketSize * 2);
+            this.nodes[bucket] = Arrays.copyOf(this.nodes[bucket], bucketSize * 2);
+        }
+        this.keys[bucket][bucketSize] = key;
+        this.nodes[bucket][bucketSize] = node;
+        this.sizes[bucket] = bucketSize + 1;
+    }
+
+    /**
+     * Determines the bucket of a key, which is the position of the highest bit in which it differs from the last popped
+     * key.
+     *
+     * @param key
+     *            the key
+     * @return the index of the bucket
+     */
+    private int bucketOf(long key) {
+        return Long.SIZE - Long.numberOfLeadingZeros(key ^ this.lastKey);
+    }
+
+}
@@ -0,0 +1,323 @@
+package de.dhbw.astar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import de.dhbw.exceptions.NodeOutOfBoundsException;
+import de.dhbw.model.Neighbourhood;
+import de.dhbw.model.Node;
+import de.dhbw.model.TerritoryMap;
+import de.dhbw.model.TerritoryMapListener;
+
+/**
+ * The ReachabilityIndex labels each passable {@link Node} of a {@link TerritoryMap} with the connected component it
+ * belongs to. Two {@link Node}s are reachable from each other if and only if they have the same label, so a search for
+ * an unreachable terminal {@link Node} can be rejected before a single {@link Node} is expanded.
+ * <p>
+ * The labels are computed by a union-find that processes horizontal stripes of the map in parallel and merges the
+ * stripe borders afterwards. Changes of the map are applied incrementally when they happen, so queries never pay for
+ * them: a {@link Node} that becomes passable is united with its neighbours, and a {@link Node} that becomes impassable
+ * may split its component, which is therefore relabelled by a flood fill that is bounded by the size of this component.
+ * Only changes of the passability rules of the whole map cause a complete rebuild.
+ */
+public class ReachabilityIndex implements TerritoryMapListener {
+
+    private static final int IMPASSABLE = -1;
+    private static final int MIN_ROWS_PER_STRIPE = 16;
+
+    private final TerritoryMap territoryMap;
+    private int[] parents;
+    private int[] visits;
+    private int[] queue;
+    private int visit;
+
+    /**
+     * Creates the index for a {@link TerritoryMap} and registers itself for changes of the map.
+     *
+     * @param territoryMap
+     *            the {@link TerritoryMap} that should be indexed
+     */
+    public ReachabilityIndex(TerritoryMap territoryMap) {
+        this.territoryMap = territoryMap;
+        this.territoryMap.addListener(this);
+        this.rebuild();
+    }
+
+    /**
+     * Returns the {@link TerritoryMap} that is indexed.
+     *
+     * @return territoryMap
+     */
+    public TerritoryMap getTerritoryMap() {
+        return territoryMap;
+    }
+
+    /**
+     * Checks whether there is a path between two {@link Node}s.
+     *
+     * @param originNode
+     *            the {@link Node} where the path starts
+     * @param destinationNode
+     *            the {@link Node} where the path ends
+     * @return true if both {@link Node}s are passable and within the same component
+     * @throws NodeOutOfBoundsException
+     *             if one of the {@link Node}s is not within the bounds of the {@link TerritoryMap}
+     */
+    public boolean isReachable(Node originNode, Node destinationNode) throws NodeOutOfBoundsException {
+        int originLabel = this.getComponentLabel(originNode);
+        return originLabel != IMPASSABLE && originLabel == this.getComponentLabel(destinationNode);
+    }
+
+    /**
+     * Returns all {@link Node}s of a list that can be reached from a origin {@link Node}.
+     *
+     * @param originNode
+     *            the {@link Node} where the paths start
+     * @param destinationNodes
+     *            the {@link Node}s that should be filtered
+     * @return a list with the reachable destination {@link Node}s
+     * @throws NodeOutOfBoundsException
+     *             if one of the {@link Node}s is not within the bounds of the {@link TerritoryMap}
+     */
+    public List<Node> filterReachable(Node originNode, List<Node> destinationNodes)
+        throws NodeOutOfBoundsException {
+        List<Node> reachableNodes = new ArrayList<>();
+        for (Node destinationNode : destinationNodes) {
+            if (this.isReachable(originNode, destinationNode)) {
+                reachableNodes.add(destinationNode);
+            }
+        }
+        return reachableNodes;
+    }
+
+    /**
+     * Returns the label of the component a {@link Node} belongs to.
+     *
+     * @param node
+     *            the {@link Node} whose label should be returned
+     * @return the label of the component or -1 if the {@link Node} is impassable
+     * @throws NodeOutOfBoundsException
+     *             if the {@link Node} is not within the bounds of the {@link TerritoryMap}
+     */
+    public int getComponentLabel(Node node) throws NodeOutOfBoundsException {
+        this.territoryMap.checkNodeMembership(node);
+        int index = this.toIndex(node.getXCoordinate(), node.getYCoordinate());
+        if (this.parents[index] == IMPASSABLE) {
+            return IMPASSABLE;
+        }
+        return this.find(index);
+    }
+
+    @Override
+    public void nodeChanged(Node node, boolean wasPassable) {
+        boolean isPassable = this.territoryMap.isPassable(node.getXCoordinate(), node.getYCoordinate());
+        if (wasPassable == isPassable) {
+            return;
+        }
+        if (!isPassable) {
+            this.removeNode(node);
+            return;
+        }
+
+        // A new node only adds steps to its neighbours, so uniting it with them is sufficient
+        int index = this.toIndex(node.getXCoordinate(), node.getYCoordinate());
+        this.parents[index] = index;
+        Neighbourhood neighbourhood = new Neighbourhood();
+        this.territoryMap.collectNeighbours(node, neighbourhood);
+        for (int i = 0; i < neighbourhood.size(); i++) {
+            Node neighbour = neighbourhood.getNode(i);
+            this.union(index, this.toIndex(neighbour.getXCoordinate(), neighbour.getYCoordinate()));
+        }
+    }
+
+    @Override
+    public void territoryChanged() {
+        this.rebuild();
+    }
+
+    /**
+     * Relabels the component of a {@link Node} that has become impassable. Removing the {@link Node} may split its
+     * component, which a union-find cannot undo. Every other {@link Node} of the component reached the removed
+     * {@link Node} through one of its neighbours, so a flood fill from each neighbour that has not been reached yet
+     * visits the whole former component and makes each visited {@link Node} point directly to its new root.
+     *
+     * @param node
+     *            the {@link Node} that has become impassable
+     */
+    private void removeNode(Node node) {
+        this.parents[this.toIndex(node.getXCoordinate(), node.getYCoordinate())] = IMPASSABLE;
+        if (this.visit == Integer.MAX_VALUE) {
+            Arrays.fill(this.visits, 0);
+            this.visit = 0;
+        }
+        this.visit++;
+
+        Neighbourhood startNodes = new Neighbourhood();
+        Neighbourhood neighbourhood = new Neighbourhood();
+        this.territoryMap.collectNeighbours(node, startNodes);
+        for (int i = 0; i < startNodes.size(); i++) {
+            int root = this.toIndex(startNodes.getNode(i).getXCoordinate(), startNodes.getNode(i).getYCoordinate());
+            if (this.visits[root] == this.visit) {
+                continue;
+            }
+            this.visits[root] = this.visit;
+            int head = 0;
+            int tail = 0;
+            this.queue[tail++] = root;
+            while (head < tail) {
+                int index = this.queue[head++];
+                this.parents[index] = root;
+                this.territoryMap.collectNeighbours(this.toNode(index), neighbourhood);
+                for (int j = 0; j < neighbourhood.size(); j++) {
+                    Node neighbour = neighbourhood.getNode(j);
+                    int neighbourIndex = this.toIndex(neighbour.getXCoordinate(), neighbour.getYCoordinate());
+                    if (this.visits[neighbourIndex] != this.visit) {
+                        this.visits[neighbourIndex] = this.visit;
+                        this.queue[tail++] = neighbourIndex;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the labels of all {@link Node}s. Each stripe of rows is united by its own thread, because the stripes
+     * do not share any entries of the parent array. Afterwards the borders between the stripes are united and every
+     * {@link Node} is linked directly to its root, so that a lookup needs only a single step. The neighbours are taken
+     * from the {@link TerritoryMap}, so its connectivity and corner cutting rules are respected.
+     */
+    private void rebuild() {
+        int width = this.territoryMap.getWidth();
+        int height = this.territoryMap.getHeight();
+        int stripes = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), height / MIN_ROWS_PER_STRIPE));
+        int rowsPerStripe = (height + stripes - 1) / stripes;
+        int[] parents = new int[width * height];
+        this.parents = parents;
+        this.visits = new int[parents.length];
+        this.queue = new int[parents.length];
+        this.visit = 0;
+
+        IntStream.range(0, stripes).parallel().forEach(stripe -> {
+            int firstRow = stripe * rowsPerStripe + 1;
+            int lastRow = Math.min(height, firstRow + rowsPerStripe - 1);
+            for (int y = firstRow; y <= lastRow; y++) {
+                for (int x = 1; x <= width; x++) {
+                    int index = this.toIndex(x, y);
+                    parents[index] = this.territoryMap.isPassable(x, y) ? index : IMPASSABLE;
+                }
+            }
+            this.uniteRows(firstRow, lastRow, firstRow, lastRow);
+        });
+
+        for (int y = rowsPerStripe + 1; y <= height; y = y + rowsPerStripe) {
+            this.uniteRows(y, y, y - 1, y);
+        }
+
+        int[] roots = new int[parents.length];
+        IntStream.range(0, parents.length).parallel().forEach(index -> {
+            int root = index;
+            while (root != IMPASSABLE && parents[root] != root) {
+                root = parents[root];
+            }
+            roots[index] = root;
+        });
+        this.parents = roots;
+    }
+
+    /**
+     * Unites each {@link Node} of a range of rows with its neighbours that lie within another range of rows.
+     *
+     * @param firstRow
+     *            the first row whose {@link Node}s should be united
+     * @param lastRow
+     *            the last row whose {@link Node}s should be united
+     * @param firstNeighbourRow
+     *            the first row of the neighbours that are considered
+     * @param lastNeighbourRow
+     *            the last row of the neighbours that are considered
+     */
+    private void uniteRows(int firstRow, int lastRow, int firstNeighbourRow, int lastNeighbourRow) {
+        Neighbourhood neighbourhood = new Neighbourhood();
+        for (int y = firstRow; y <= lastRow; y++) {
+            for (int x = 1; x <= this.territoryMap.getWidth(); x++) {
+                if (!this.territoryMap.isPassable(x, y)) {
+                    continue;
+                }
+                this.territoryMap.collectNeighbours(this.territoryMap.getNode(x, y), neighbourhood);
+                for (int i = 0; i < neighbourhood.size(); i++) {
+                    Node neighbour = neighbourhood.getNode(i);
+                    if (neighbour.getYCoordinate() >= firstNeighbourRow
+                        && neighbour.getYCoordinate() <= lastNeighbourRow) {
+                        this.union(this.toIndex(x, y),
+                            this.toIndex(neighbour.getXCoordinate(), neighbour.getYCoordinate()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unites the components of two {@link Node}s. The root with the higher index is linked to the root with the lower
+     * index. Impassable {@link Node}s are ignored.
+     *
+     * @param first
+     *            the index of the first {@link Node}
+     * @param second
+     *            the index of the second {@link Node}
+     */
+    private void union(int first, int second) {
+        if (this.parents[first] == IMPASSABLE || this.parents[second] == IMPASSABLE) {
+            return;
+        }
+        int firstRoot = this.find(first);
+        int secondRoot = this.find(second);
+        if (firstRoot < secondRoot) {
+            this.parents[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            this.parents[firstRoot] = secondRoot;
+        }
+    }
+
+    /**
+     * Finds the root of the component of a passable {@link Node} and halves the path to it.
+     *
+     * @param index
+     *            the index of the {@link Node}
+     * @return the index of the root
+     */
+    private int find(int index) {
+        while (this.parents[index] != index) {
+            this.parents[index] = this.parents[this.parents[index]];
+            index = this.parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * Converts the coordinates of a {@link Node} to its index in the parent array.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the index in the parent array
+     */
+    private int toIndex(int xCoordinate, int yCoordinate) {
+        return (yCoordinate - 1) * this.territoryMap.getWidth() + (xCoordinate - 1);
+    }
+
+    /**
+     * Converts an index of the parent array to the {@link Node} of the {@link TerritoryMap}.
+     *
+     * @param index
+     *            the index in the parent array
+     * @return the {@link Node}
+     */
+    private Node toNode(int index) {
+        int width = this.territoryMap.getWidth();
+        return this.territoryMap.getNode(index % width + 1, index / width + 1);
+    }
+
+}
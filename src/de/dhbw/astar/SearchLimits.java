@@ -0,0 +1,98 @@
+package de.dhbw.astar;
+
+/**
+ * The SearchLimits restrict the resources of a single search. By default a search is not limited.
+ */
+public class SearchLimits {
+
+    private long maxExpansions = Long.MAX_VALUE;
+    private long timeoutMillis = Long.MAX_VALUE;
+    private long maxMemoryBytes = Long.MAX_VALUE;
+    private boolean hasDeadline;
+    private long deadlineNanos;
+
+    /**
+     * Returns the maximal number of expanded {@link de.dhbw.model.Node}s.
+     *
+     * @return maxExpansions
+     */
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    /**
+     * Sets the maximal number of expanded {@link de.dhbw.model.Node}s.
+     *
+     * @param maxExpansions
+     */
+    public void setMaxExpansions(long maxExpansions) {
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Returns the time in milliseconds after which the search is stopped.
+     *
+     * @return timeoutMillis
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Sets the time in milliseconds after which the search is stopped. The time is measured from the call of
+     * {@link AStar#search}, so it includes the preparation of the search.
+     *
+     * @param timeoutMillis
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Checks whether an absolute deadline has been set.
+     *
+     * @return hasDeadline
+     */
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * Returns the absolute deadline as a value of {@link System#nanoTime()}.
+     *
+     * @return deadlineNanos
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Sets an absolute deadline as a value of {@link System#nanoTime()}, for example the time a request has been
+     * received plus its latency budget. The search stops at this deadline or after the timeout, whichever comes first.
+     *
+     * @param deadlineNanos
+     */
+    public void setDeadlineNanos(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns the maximal estimated memory in bytes of the open and closed {@link de.dhbw.model.Node}s and their paths.
+     *
+     * @return maxMemoryBytes
+     */
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    /**
+     * Sets the maximal estimated memory in bytes of the open and closed {@link de.dhbw.model.Node}s and their paths.
+     *
+     * @param maxMemoryBytes
+     */
+    public void setMaxMemoryBytes(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+}
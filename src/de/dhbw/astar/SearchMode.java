@@ -0,0 +1,27 @@
+package de.dhbw.astar;
+
+/**
+ * The SearchMode determines how {@link AStar} manages the open list.
+ */
+public enum SearchMode {
+
+    /**
+     * The open list is a plain list that is scanned for the {@link de.dhbw.model.Node} with the lowest f value. The
+     * costs are calculated exactly.
+     */
+    LIST_SCAN,
+
+    /**
+     * The costs are calculated exactly and the open list is a binary heap. Apart from the open list the search is the
+     * same as {@link #QUANTIZED}, so both modes can be compared to measure the benefit of the {@link RadixHeap}.
+     */
+    PRIORITY_QUEUE,
+
+    /**
+     * The g and f values are quantized to fixed-point integers and the open list is a {@link RadixHeap}, which pushes
+     * and pops in amortized constant time. The resulting costs may deviate from the exact costs by the bound returned
+     * by {@link SearchResult#getQuantizationErrorBound()}.
+     */
+    QUANTIZED
+
+}
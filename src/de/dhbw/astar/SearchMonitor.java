@@ -0,0 +1,146 @@
+package de.dhbw.astar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.dhbw.model.Node;
+
+/**
+ * The SearchMonitor counts the expansions of a single search, checks them against the {@link SearchLimits} and the
+ * {@link CancellationToken}, and remembers the expanded {@link Node} that is closest to a terminal {@link Node}. The
+ * clock is only read every few expansions, because it is more expensive than the other checks.
+ */
+class SearchMonitor {
+
+    private static final int CLOCK_CHECK_INTERVAL_MASK = 15;
+    private static final long BYTES_PER_NODE = 64;
+    private static final long BYTES_PER_PATH_ENTRY = 8;
+
+    private final SearchLimits limits;
+    private final CancellationToken cancellationToken;
+    private final List<Node> terminalNodes;
+    private final long start;
+    private final long timeoutNanos;
+    private long expansions;
+    private long pathEntries;
+    private Node closestNode;
+    private double closestDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Creates the monitor of a search.
+     *
+     * @param limits
+     *            the {@link SearchLimits} of the search
+     * @param cancellationToken
+     *            the {@link CancellationToken} of the search
+     * @param terminalNodes
+     *            the {@link Node}s that represent the goals
+     * @param start
+     *            the value of {@link System#nanoTime()} when the search has been called
+     */
+    SearchMonitor(SearchLimits limits, CancellationToken cancellationToken, List<Node> terminalNodes, long start) {
+        this.limits = limits;
+        this.cancellationToken = cancellationToken;
+        this.terminalNodes = terminalNodes;
+        this.start = start;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(limits.getTimeoutMillis());
+    }
+
+    /**
+     * Records that a {@link Node} is about to be expanded and checks whether the search has to stop.
+     *
+     * @param node
+     *            the closed {@link Node} whose path is final
+     * @param retainedNodes
+     *            the number of entries of the open list, including outdated ones, plus the closed {@link Node}s
+     * @return the reason to stop or null if the search may expand the {@link Node}
+     */
+    StopReason expand(Node node, int retainedNodes) {
+        this.recordDistance(node);
+        if (this.cancellationToken.isCancelled()) {
+            return StopReason.CANCELLED;
+        }
+        if (this.expansions >= this.limits.getMaxExpansions()) {
+            return StopReason.EXPANSION_LIMIT;
+        }
+        if (retainedNodes * BYTES_PER_NODE + this.pathEntries * BYTES_PER_PATH_ENTRY > this.limits
+            .getMaxMemoryBytes()) {
+            return StopReason.MEMORY_LIMIT;
+        }
+        if ((this.expansions & CLOCK_CHECK_INTERVAL_MASK) == 0 && this.isDeadlineExpired(System.nanoTime())) {
+            return StopReason.DEADLINE;
+        }
+        this.expansions++;
+        return null;
+    }
+
+    /**
+     * Checks whether the timeout or the absolute deadline has expired.
+     *
+     * @param now
+     *            the current value of {@link System#nanoTime()}
+     * @return true if the search has to stop
+     */
+    private boolean isDeadlineExpired(long now) {
+        return now - this.start > this.timeoutNanos
+            || (this.limits.hasDeadline() && now - this.limits.getDeadlineNanos() > 0);
+    }
+
+    /**
+     * Adjusts the number of {@link Node}s stored in the paths of all open and closed {@link Node}s.
+     *
+     * @param entries
+     *            the number of added entries, negative if entries have been removed
+     */
+    void addPathEntries(int entries) {
+        this.pathEntries += entries;
+    }
+
+    /**
+     * Returns the number of expanded {@link Node}s.
+     *
+     * @return expansions
+     */
+    long getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * Returns a copy of the path from the start {@link Node} to the expanded {@link Node} that is closest to a terminal
+     * {@link Node}.
+     *
+     * @return the best partial path or an empty list if no {@link Node} has been expanded
+     */
+    List<Node> getClosestPath() {
+        if (this.closestNode == null) {
+            return new ArrayList<Node>();
+        }
+        List<Node> path = new ArrayList<>(this.closestNode.getPath());
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Remembers a {@link Node} if it is closer to a terminal {@link Node} than all {@link Node}s before, or as close
+     * but cheaper to reach.
+     *
+     * @param node
+     *            the {@link Node} that should be recorded
+     */
+    private void recordDistance(Node node) {
+        double distance = Double.POSITIVE_INFINITY;
+        for (Node terminalNode : this.terminalNodes) {
+            double a = node.getXCoordinate() - terminalNode.getXCoordinate();
+            double b = node.getYCoordinate() - terminalNode.getYCoordinate();
+            distance = Math.min(distance, a * a + b * b);
+        }
+        if (this.closestNode == null || distance < this.closestDistance
+            || (distance == this.closestDistance && node.getGValue() < this.closestNode.getGValue())) {
+            this.closestDistance = distance;
+            this.closestNode = node;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package de.dhbw.astar;
+
+import java.util.List;
+
+import de.dhbw.model.Node;
+
+/**
+ * A SearchResult contains the path found by {@link AStar} and the reason why the search has stopped.
+ */
+public class SearchResult {
+
+    private StopReason stopReason;
+    private List<Node> path;
+    private long expansions;
+    private double quantizationErrorBound;
+
+    public SearchResult(StopReason stopReason, List<Node> path, long expansions) {
+        this(stopReason, path, expansions, 0);
+    }
+
+    public SearchResult(StopReason stopReason, List<Node> path, long expansions, double quantizationErrorBound) {
+        this.stopReason = stopReason;
+        this.path = path;
+        this.expansions = expansions;
+        this.quantizationErrorBound = quantizationErrorBound;
+    }
+
+    /**
+     * Returns the reason why the search has stopped.
+     *
+     * @return stopReason
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Checks whether the path reaches a terminal {@link Node}.
+     *
+     * @return true if the search has found a path
+     */
+    public boolean isComplete() {
+        return stopReason == StopReason.FOUND;
+    }
+
+    /**
+     * Returns the path of the search, which depends on the {@link StopReason}:
+     * <ul>
+     * <li>{@link StopReason#FOUND}: the complete path from the start {@link Node} to a terminal {@link Node}.</li>
+     * <li>{@link StopReason#NO_PATH}: an empty list, no matter whether the query has been rejected before the search
+     * or the search has expanded all reachable {@link Node}s.</li>
+     * <li>All other reasons: the best partial path from the start {@link Node} to the expanded {@link Node} that is
+     * closest to a terminal {@link Node}.</li>
+     * </ul>
+     *
+     * @return path
+     */
+    public List<Node> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of expanded {@link Node}s.
+     *
+     * @return expansions
+     */
+    public long getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * Returns the maximal deviation between the costs of the found path and the exact costs of the same path. The bound
+     * is zero unless a path has been found with {@link SearchMode#QUANTIZED}, where each step is rounded to the nearest
+     * fixed-point unit.
+     *
+     * @return the quantization error bound in cost units
+     */
+    public double getQuantizationErrorBound() {
+        return quantizationErrorBound;
+    }
+
+}
@@ -0,0 +1,39 @@
+package de.dhbw.astar;
+
+/**
+ * The StopReason describes why {@link AStar} has finished a search.
+ */
+public enum StopReason {
+
+    /**
+     * A path to a terminal {@link de.dhbw.model.Node} has been found.
+     */
+    FOUND,
+
+    /**
+     * All reachable {@link de.dhbw.model.Node}s have been expanded without reaching a terminal
+     * {@link de.dhbw.model.Node}.
+     */
+    NO_PATH,
+
+    /**
+     * The maximal number of expansions has been reached.
+     */
+    EXPANSION_LIMIT,
+
+    /**
+     * The timeout or the absolute deadline has expired.
+     */
+    DEADLINE,
+
+    /**
+     * The estimated memory of the open and closed {@link de.dhbw.model.Node}s has exceeded its limit.
+     */
+    MEMORY_LIMIT,
+
+    /**
+     * The search has been cancelled through its {@link CancellationToken}.
+     */
+    CANCELLED
+
+}
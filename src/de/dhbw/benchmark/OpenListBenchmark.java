@@ -0,0 +1,117 @@
+package de.dhbw.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import de.dhbw.astar.AStar;
+import de.dhbw.astar.CancellationToken;
+import de.dhbw.astar.SearchLimits;
+import de.dhbw.astar.SearchMode;
+import de.dhbw.astar.SearchResult;
+import de.dhbw.datareader.DataReader;
+import de.dhbw.exceptions.InvalidNodeException;
+import de.dhbw.exceptions.NodeOutOfBoundsException;
+import de.dhbw.model.Node;
+import de.dhbw.model.TerritoryMap;
+
+/**
+ * The OpenListBenchmark compares the {@link SearchMode}s of {@link AStar} on random square territory maps that use the
+ * costs table of a .csv file. For each size the path from the upper left to the lower right corner is searched.
+ * {@link SearchMode#PRIORITY_QUEUE} and {@link SearchMode#QUANTIZED} differ only in their open list, so their
+ * comparison shows the benefit of the radix heap, while {@link SearchMode#LIST_SCAN} shows the original search.
+ */
+public class OpenListBenchmark {
+
+    private static final int[] SIZES = { 25, 50, 100, 150 };
+    private static final int WARM_UP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Runs the benchmark. The first argument is the path to the .csv file with the costs table.
+     *
+     * @throws IOException
+     *             thrown if the requested file is not existing
+     * @throws InvalidNodeException
+     *             thrown if a {@link Node} has not-positive coordinates.
+     * @throws NodeOutOfBoundsException
+     *             thrown if the corners are not within the {@link TerritoryMap}
+     */
+    public static void main(String[] args) throws IOException, InvalidNodeException, NodeOutOfBoundsException {
+        Map<Integer, Double> costsTable = new DataReader().readCostsTable(args[0]);
+        List<Integer> codes = new ArrayList<>(costsTable.keySet());
+        Random random = new Random(42);
+
+        for (int size : SIZES) {
+            TerritoryMap territoryMap = new TerritoryMap();
+            territoryMap.initialize(createRandomMatrix(size, codes, random), costsTable);
+            for (SearchMode searchMode : SearchMode.values()) {
+                measure(territoryMap, size, searchMode);
+            }
+        }
+    }
+
+    /**
+     * Creates a square matrix with random description codes.
+     *
+     * @param size
+     *            the width and height of the matrix
+     * @param codes
+     *            the description codes to choose from
+     * @param random
+     *            the source of randomness
+     * @return the raw matrix
+     */
+    private static List<List<Integer>> createRandomMatrix(int size, List<Integer> codes, Random random) {
+        List<List<Integer>> matrix = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            List<Integer> line = new ArrayList<>();
+            for (int x = 0; x < size; x++) {
+                line.add(codes.get(random.nextInt(codes.size())));
+            }
+            matrix.add(line);
+        }
+        return matrix;
+    }
+
+    /**
+     * Searches the path between the corners of a {@link TerritoryMap} several times and prints the average duration.
+     *
+     * @param territoryMap
+     *            the {@link TerritoryMap}
+     * @param size
+     *            the width and height of the {@link TerritoryMap}
+     * @param searchMode
+     *            the {@link SearchMode} that should be measured
+     * @throws InvalidNodeException
+     *             thrown if a {@link Node} has not-positive coordinates.
+     * @throws NodeOutOfBoundsException
+     *             thrown if the corners are not within the {@link TerritoryMap}
+     */
+    private static void measure(TerritoryMap territoryMap, int size, SearchMode searchMode)
+        throws InvalidNodeException, NodeOutOfBoundsException {
+        AStar aStar = new AStar();
+        aStar.setSearchMode(searchMode);
+        List<Node> terminalNodes = Collections.singletonList(new Node(size, size));
+
+        SearchResult result = null;
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            result = aStar.search(territoryMap, new Node(1, 1), terminalNodes, new SearchLimits(),
+                new CancellationToken());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            result = aStar.search(territoryMap, new Node(1, 1), terminalNodes, new SearchLimits(),
+                new CancellationToken());
+        }
+        double milliseconds = (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+
+        List<Node> path = result.getPath();
+        System.out.printf("%dx%d %-14s %10.2f ms  costs %.3f  error bound %.6f%n", size, size, searchMode,
+            milliseconds, path.get(path.size() - 1).getGValue(), result.getQuantizationErrorBound());
+    }
+
+}
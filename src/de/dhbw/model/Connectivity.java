@@ -0,0 +1,18 @@
+package de.dhbw.model;
+
+/**
+ * The Connectivity determines which {@link Node}s of a {@link TerritoryMap} are neighbours of each other.
+ */
+public enum Connectivity {
+
+    /**
+     * Only the horizontal and vertical neighbours are reachable.
+     */
+    FOUR,
+
+    /**
+     * The horizontal, vertical and diagonal neighbours are reachable.
+     */
+    EIGHT
+
+}
@@ -0,0 +1,24 @@
+package de.dhbw.model;
+
+/**
+ * The CornerCutting determines whether a diagonal step is allowed if the {@link Node}s beside the diagonal are
+ * impassable.
+ */
+public enum CornerCutting {
+
+    /**
+     * Diagonal steps are always allowed.
+     */
+    ALLOWED,
+
+    /**
+     * Diagonal steps are allowed if at least one of the two {@link Node}s beside the diagonal is passable.
+     */
+    NO_SQUEEZING,
+
+    /**
+     * Diagonal steps are only allowed if both {@link Node}s beside the diagonal are passable.
+     */
+    FORBIDDEN
+
+}
@@ -0,0 +1,71 @@
+package de.dhbw.model;
+
+/**
+ * A Neighbourhood is a reusable buffer for the neighbours of a {@link Node} in a {@link TerritoryMap}. Besides the
+ * neighbours it contains the factor for the costs of the step to each neighbour, which is greater than 1 for diagonal
+ * steps. Reusing one Neighbourhood for every expansion avoids the allocation of a new list per {@link Node}.
+ */
+public class Neighbourhood {
+
+    private static final int MAX_NEIGHBOURS = 8;
+
+    private Node[] nodes = new Node[MAX_NEIGHBOURS];
+    private double[] stepFactors = new double[MAX_NEIGHBOURS];
+    private int size;
+
+    /**
+     * Returns the number of neighbours.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a neighbour.
+     *
+     * @param index
+     *            the index of the neighbour, between 0 and size() - 1
+     * @return the neighbour
+     */
+    public Node getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the factor for the costs of the step to a neighbour.
+     *
+     * @param index
+     *            the index of the neighbour, between 0 and size() - 1
+     * @return the step factor
+     */
+    public double getStepFactor(int index) {
+        return stepFactors[index];
+    }
+
+    /**
+     * Writes a neighbour and the factor for the costs of the step to it.
+     *
+     * @param index
+     *            the index of the neighbour
+     * @param node
+     *            the neighbour
+     * @param stepFactor
+     *            the step factor
+     */
+    void set(int index, Node node, double stepFactor) {
+        nodes[index] = node;
+        stepFactors[index] = stepFactor;
+    }
+
+    /**
+     * Sets the number of neighbours.
+     *
+     * @param size
+     */
+    void setSize(int size) {
+        this.size = size;
+    }
+
+}
@@ -1,8 +1,10 @@
 package de.dhbw.model;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import de.dhbw.exceptions.InvalidNodeException;
 import de.dhbw.exceptions.NodeOutOfBoundsException;
@@ -10,10 +12,36 @@ import de.dhbw.exceptions.NodeOutOfBoundsException;
 /**
  * A territory map basically consists of an two-dimensional array of {@link Node} objects that represents the whole
  * territory. The coordinates of the {@link Node} objects start at x = 1 and y = 1;
+ * <p>
+ * For the neighbour search the {@link Node}s are additionally stored in a one-dimensional array that is surrounded by
+ * a border of impassable cells. Thanks to the border a {@link Node} at (x, y) is stored at the index y * stride + x
+ * and its neighbours can be found by adding constant offsets without checking the bounds of the map.
  */
 public class TerritoryMap {
 
+    private static final int MAX_SINGLE_NOTIFICATIONS = 64;
+    private static final int[] ORTHOGONAL_X_STEPS = { 1, -1, 0, 0 };
+    private static final int[] ORTHOGONAL_Y_STEPS = { 0, 0, 1, -1 };
+    private static final int[] DIAGONAL_X_STEPS = { 1, -1, 1, -1 };
+    private static final int[] DIAGONAL_Y_STEPS = { 1, 1, -1, -1 };
+
     private Node[][] territoryMap;
+    private int[][] codes;
+    private Node[] cells;
+    private boolean[] passableCells;
+    private int stride;
+    private int[] offsets;
+    private int[] firstSideOffsets;
+    private int[] secondSideOffsets;
+    private double[] stepFactors;
+    private Connectivity connectivity = Connectivity.FOUR;
+    private CornerCutting cornerCutting = CornerCutting.FORBIDDEN;
+    private double diagonalCostFactor = Math.sqrt(2);
+    private Map<Integer, Double> costsTable;
+    private Set<Integer> impassableCodes = new HashSet<>();
+    private double costsThreshold = Double.POSITIVE_INFINITY;
+    private List<TerritoryMapListener> listeners = new ArrayList<>();
+    private TerritoryVersion version;
     private int height;
     private int width;
 
@@ -28,7 +56,8 @@ public class TerritoryMap {
 
     /**
      * Creates the final territory map of the description matrix and the costs table. The coordinates of the
-     * {@link Node} objects start at x = 1 and y = 1;
+     * {@link Node} objects start at x = 1 and y = 1; Registered {@link TerritoryMapListener}s are notified, because the
+     * map may have been initialized before.
      *
      * @param matrix
      *            the raw matrix
@@ -42,43 +71,444 @@ public class TerritoryMap {
         throws InvalidNodeException {
         this.height = matrix.size();
         this.width = matrix.get(0).size();
+        this.costsTable = costsTable;
+        this.version = null;
 
         Node[][] territoryMap = new Node[this.height][this.width];
+        this.codes = new int[this.height][this.width];
         for (int i = 0; i < territoryMap.length; i++) {
             for (int j = 0; j < territoryMap[i].length; j++) {
                 territoryMap[j][i] = new Node(i + 1, j + 1);
-                territoryMap[j][i].setKValue(costsTable.get(matrix.get(j).get(i)));
+                territoryMap[j][i].setKValue(this.lookUpCosts(matrix.get(j).get(i)));
+                this.codes[j][i] = matrix.get(j).get(i);
             }
         }
         this.territoryMap = territoryMap;
+
+        this.stride = this.width + 2;
+        this.cells = new Node[this.stride * (this.height + 2)];
+        for (Node[] nodes : territoryMap) {
+            for (Node node : nodes) {
+                this.cells[this.toCellIndex(node.getXCoordinate(), node.getYCoordinate())] = node;
+            }
+        }
+        this.updateOffsets();
+        this.updatePassability();
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.territoryChanged();
+        }
+        return territoryMap;
+    }
+
+    /**
+     * Creates the territory map of a {@link TerritoryVersion}. The map can later be brought to the state of newer
+     * versions of the same territory with {@link #synchronize(TerritoryVersion)}. Registered
+     * {@link TerritoryMapListener}s are notified like by {@link #initialize(List, Map)}.
+     *
+     * @param version
+     *            the {@link TerritoryVersion}
+     * @return an array with the final territory map
+     * @throws InvalidNodeException
+     *             thrown if a {@link Node} has not-positive coordinates.
+     */
+    public Node[][] initialize(TerritoryVersion version) throws InvalidNodeException {
+        Node[][] territoryMap = this.initialize(version.toMatrix(), version.getCostsTable());
+        this.version = version;
         return territoryMap;
     }
 
     /**
-     * Returns all neighbours for a certain {@link Node}.
+     * Brings the territory map to the state of another {@link TerritoryVersion} of the territory it has been
+     * initialized with. Only the tiles that are not shared between both versions are compared, and only the changed
+     * {@link Node}s are updated. The {@link TerritoryMapListener}s are notified about each changed {@link Node}, or
+     * only once if so many {@link Node}s have changed that processing them one by one would be slower.
+     *
+     * @param version
+     *            the {@link TerritoryVersion} the search should see
+     * @throws IllegalArgumentException
+     *             if the version belongs to another territory, which is detected by its size and its costs table,
+     *             because all versions of a {@link VersionedTerritory} share the same costs table
+     */
+    public void synchronize(TerritoryVersion version) {
+        if (this.version == null || this.version.getWidth() != version.getWidth()
+            || this.version.getHeight() != version.getHeight() || this.costsTable != version.getCostsTable()) {
+            throw new IllegalArgumentException("The territory map has not been initialized with this territory!");
+        }
+        if (this.synchronizeTiles(version, false, false) <= MAX_SINGLE_NOTIFICATIONS) {
+            this.synchronizeTiles(version, true, true);
+        } else {
+            this.synchronizeTiles(version, true, false);
+            for (TerritoryMapListener listener : this.listeners) {
+                listener.territoryChanged();
+            }
+        }
+        this.version = version;
+    }
+
+    /**
+     * Visits the {@link Node}s whose description codes differ from another {@link TerritoryVersion}. Tiles that are
+     * shared with the current version are skipped.
+     *
+     * @param version
+     *            the {@link TerritoryVersion} to compare with
+     * @param apply
+     *            whether the differing codes should be taken over
+     * @param notify
+     *            whether the {@link TerritoryMapListener}s should be notified about each taken over code
+     * @return the number of differing {@link Node}s
+     */
+    private int synchronizeTiles(TerritoryVersion version, boolean apply, boolean notify) {
+        int changedNodes = 0;
+        for (int tileIndex = 0; tileIndex < version.getTileCount(); tileIndex++) {
+            if (version.sharesTile(this.version, tileIndex)) {
+                continue;
+            }
+            int firstX = version.getTileXCoordinate(tileIndex);
+            int firstY = version.getTileYCoordinate(tileIndex);
+            int lastX = Math.min(this.width, firstX + TerritoryVersion.TILE_SIZE - 1);
+            int lastY = Math.min(this.height, firstY + TerritoryVersion.TILE_SIZE - 1);
+            for (int y = firstY; y <= lastY; y++) {
+                for (int x = firstX; x <= lastX; x++) {
+                    int code = version.getCode(x, y);
+                    if (code != this.codes[y - 1][x - 1]) {
+                        changedNodes++;
+                        if (apply) {
+                            this.changeCode(y - 1, x - 1, code, notify);
+                        }
+                    }
+                }
+            }
+        }
+        return changedNodes;
+    }
+
+    /**
+     * Returns the {@link TerritoryVersion} the territory map has been initialized or synchronized with.
+     *
+     * @return version or null if the territory map has been initialized with a raw matrix
+     */
+    public TerritoryVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the height of the territory map.
+     *
+     * @return height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the territory map.
+     *
+     * @return width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the {@link Node} of the territory map at the given coordinates.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the {@link Node} at the given coordinates
+     */
+    public Node getNode(int xCoordinate, int yCoordinate) {
+        return this.territoryMap[yCoordinate - 1][xCoordinate - 1];
+    }
+
+    /**
+     * Sets which {@link Node}s are neighbours of each other. The default is {@link Connectivity#FOUR}.
+     *
+     * @param connectivity
+     *            the {@link Connectivity}
+     */
+    public void setConnectivity(Connectivity connectivity) {
+        this.connectivity = connectivity;
+        this.updateOffsets();
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.territoryChanged();
+        }
+    }
+
+    /**
+     * Sets whether diagonal steps may pass impassable {@link Node}s. The default is {@link CornerCutting#FORBIDDEN}.
+     *
+     * @param cornerCutting
+     *            the {@link CornerCutting}
+     */
+    public void setCornerCutting(CornerCutting cornerCutting) {
+        this.cornerCutting = cornerCutting;
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.territoryChanged();
+        }
+    }
+
+    /**
+     * Sets the factor the costs of a diagonal step are multiplied with. The default is the square root of 2.
+     *
+     * @param diagonalCostFactor
+     *            the factor for diagonal steps
+     */
+    public void setDiagonalCostFactor(double diagonalCostFactor) {
+        this.diagonalCostFactor = diagonalCostFactor;
+        this.updateOffsets();
+    }
+
+    /**
+     * Marks description codes of the costs table as impassable. {@link Node}s with one of these codes are never
+     * returned as neighbours.
+     *
+     * @param impassableCodes
+     *            the description codes that cannot be walked
+     */
+    public void setImpassableCodes(Set<Integer> impassableCodes) {
+        this.impassableCodes = new HashSet<>(impassableCodes);
+        this.updatePassability();
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.territoryChanged();
+        }
+    }
+
+    /**
+     * Sets the maximal costs of a walkable {@link Node}. {@link Node}s with higher costs are treated as impassable.
+     *
+     * @param costsThreshold
+     *            the maximal costs of a walkable {@link Node}
+     */
+    public void setCostsThreshold(double costsThreshold) {
+        this.costsThreshold = costsThreshold;
+        this.updatePassability();
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.territoryChanged();
+        }
+    }
+
+    /**
+     * Checks whether the {@link Node} at the given coordinates can be walked.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return true if the {@link Node} is passable
+     */
+    public boolean isPassable(int xCoordinate, int yCoordinate) {
+        return this.passableCells[this.toCellIndex(xCoordinate, yCoordinate)];
+    }
+
+    /**
+     * Changes the description code of a single {@link Node} and updates its costs. All registered
+     * {@link TerritoryMapListener}s are notified. A territory map that has been initialized with a
+     * {@link TerritoryVersion} must only change through {@link #synchronize(TerritoryVersion)}, because a direct change
+     * would not match any version; such changes have to be published through the {@link VersionedTerritory}.
      *
      * @param node
-     *            the {@link Node} whose neighbours should be returned
-     * @return a list of all neighbours
+     *            the {@link Node} whose description code should be changed
+     * @param code
+     *            the new description code
+     * @throws NodeOutOfBoundsException
+     *             if the {@link Node} is not within the bounds of the territory map
+     * @throws IllegalStateException
+     *             if the territory map has been initialized with a {@link TerritoryVersion}
      */
-    public List<Node> getNeighbours(Node node) {
-        List<Node> successors = new ArrayList<>();
+    public void updateCode(Node node, int code) throws NodeOutOfBoundsException {
+        if (this.version != null) {
+            throw new IllegalStateException(
+                "The territory map follows a TerritoryVersion, update the VersionedTerritory instead!");
+        }
+        this.checkNodeMembership(node);
+        this.changeCode(node.getYCoordinate() - 1, node.getXCoordinate() - 1, code, true);
+    }
+
+    /**
+     * Changes the description code of a single {@link Node} without checking the bounds.
+     *
+     * @param row
+     *            the array index of the row
+     * @param column
+     *            the array index of the column
+     * @param code
+     *            the new description code
+     * @param notify
+     *            whether all registered {@link TerritoryMapListener}s should be notified
+     */
+    private void changeCode(int row, int column, int code, boolean notify) {
+        int cellIndex = this.toCellIndex(column + 1, row + 1);
+        boolean wasPassable = this.passableCells[cellIndex];
+
+        this.codes[row][column] = code;
+        this.territoryMap[row][column].setKValue(this.lookUpCosts(code));
+        this.passableCells[cellIndex] = this.calculatePassability(row, column);
+
+        if (!notify) {
+            return;
+        }
+        for (TerritoryMapListener listener : this.listeners) {
+            listener.nodeChanged(this.territoryMap[row][column], wasPassable);
+        }
+    }
+
+    /**
+     * Registers a {@link TerritoryMapListener} that is notified about changes of the territory map.
+     *
+     * @param listener
+     *            the {@link TerritoryMapListener}
+     */
+    public void addListener(TerritoryMapListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a registered {@link TerritoryMapListener}.
+     *
+     * @param listener
+     *            the {@link TerritoryMapListener}
+     */
+    public void removeListener(TerritoryMapListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Looks up the costs of a description code. Codes that are missing in the costs table cannot be walked.
+     *
+     * @param code
+     *            the description code
+     * @return the costs of the code
+     */
+    private Double lookUpCosts(int code) {
+        Double costs = this.costsTable.get(code);
+        return costs != null ? costs : Double.POSITIVE_INFINITY;
+    }
 
-        if (node.getXCoordinate() + 1 <= this.width) {
-            successors.add(this.territoryMap[node.getYCoordinate() - 1][node.getXCoordinate()]);
+    /**
+     * Recalculates the passability of every {@link Node}. Before the initialization only the rules are stored, because
+     * the initialization recalculates the passability anyway.
+     */
+    private void updatePassability() {
+        if (this.cells == null) {
+            return;
         }
-        if (node.getXCoordinate() - 1 >= 1) {
-            successors.add(this.territoryMap[node.getYCoordinate() - 1][node.getXCoordinate() - 2]);
+        this.passableCells = new boolean[this.cells.length];
+        for (int row = 0; row < this.height; row++) {
+            for (int column = 0; column < this.width; column++) {
+                this.passableCells[this.toCellIndex(column + 1, row + 1)] = this.calculatePassability(row, column);
+            }
         }
-        if (node.getYCoordinate() + 1 <= this.height) {
-            successors.add(this.territoryMap[node.getYCoordinate()][node.getXCoordinate() - 1]);
+    }
+
+    /**
+     * Recalculates the offset tables of the neighbours for the current {@link Connectivity}. For orthogonal steps both
+     * side offsets point to the neighbour itself, so the corner check never rejects them.
+     */
+    private void updateOffsets() {
+        int directions = this.connectivity == Connectivity.EIGHT ? 8 : 4;
+        this.offsets = new int[directions];
+        this.firstSideOffsets = new int[directions];
+        this.secondSideOffsets = new int[directions];
+        this.stepFactors = new double[directions];
+
+        for (int direction = 0; direction < ORTHOGONAL_X_STEPS.length; direction++) {
+            int offset = ORTHOGONAL_Y_STEPS[direction] * this.stride + ORTHOGONAL_X_STEPS[direction];
+            this.offsets[direction] = offset;
+            this.firstSideOffsets[direction] = offset;
+            this.secondSideOffsets[direction] = offset;
+            this.stepFactors[direction] = 1;
         }
-        if (node.getYCoordinate() - 1 >= 1) {
-            successors.add(this.territoryMap[node.getYCoordinate() - 2][node.getXCoordinate() - 1]);
+        for (int direction = ORTHOGONAL_X_STEPS.length; direction < directions; direction++) {
+            int xStep = DIAGONAL_X_STEPS[direction - ORTHOGONAL_X_STEPS.length];
+            int yStep = DIAGONAL_Y_STEPS[direction - ORTHOGONAL_X_STEPS.length];
+            this.offsets[direction] = yStep * this.stride + xStep;
+            this.firstSideOffsets[direction] = xStep;
+            this.secondSideOffsets[direction] = yStep * this.stride;
+            this.stepFactors[direction] = this.diagonalCostFactor;
+        }
+    }
+
+    /**
+     * Converts the coordinates of a {@link Node} to its index in the padded cell array.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the index in the padded cell array
+     */
+    private int toCellIndex(int xCoordinate, int yCoordinate) {
+        return yCoordinate * this.stride + xCoordinate;
+    }
+
+    /**
+     * Determines whether a {@link Node} can be walked with regard to the impassable codes and the costs threshold.
+     *
+     * @param row
+     *            the array index of the row
+     * @param column
+     *            the array index of the column
+     * @return true if the {@link Node} is passable
+     */
+    private boolean calculatePassability(int row, int column) {
+        double costs = this.territoryMap[row][column].getKValue();
+        return !this.impassableCodes.contains(this.codes[row][column]) && !Double.isInfinite(costs)
+            && costs <= this.costsThreshold;
+    }
+
+    /**
+     * Returns all passable neighbours for a certain {@link Node}. This method allocates a new list for each call; the
+     * search should use {@link #collectNeighbours(Node, Neighbourhood)} instead.
+     *
+     * @param node
+     *            the {@link Node} whose neighbours should be returned
+     * @return a list of all neighbours
+     */
+    public List<Node> getNeighbours(Node node) {
+        Neighbourhood neighbourhood = new Neighbourhood();
+        this.collectNeighbours(node, neighbourhood);
+
+        List<Node> successors = new ArrayList<>();
+        for (int i = 0; i < neighbourhood.size(); i++) {
+            successors.add(neighbourhood.getNode(i));
         }
         return successors;
     }
 
+    /**
+     * Writes all passable neighbours for a certain {@link Node} and the factors for the costs of the steps to them into
+     * a {@link Neighbourhood}. Because of the impassable border no bounds have to be checked, and each neighbour is
+     * written unconditionally and only kept if it is reachable.
+     *
+     * @param node
+     *            the {@link Node} whose neighbours should be collected
+     * @param neighbourhood
+     *            the {@link Neighbourhood} that receives the neighbours
+     */
+    public void collectNeighbours(Node node, Neighbourhood neighbourhood) {
+        Node[] cells = this.cells;
+        boolean[] passableCells = this.passableCells;
+        int[] offsets = this.offsets;
+        boolean cornerCuttingAllowed = this.cornerCutting == CornerCutting.ALLOWED;
+        boolean bothSidesRequired = this.cornerCutting == CornerCutting.FORBIDDEN;
+        int cellIndex = this.toCellIndex(node.getXCoordinate(), node.getYCoordinate());
+        int size = 0;
+
+        for (int direction = 0; direction < offsets.length; direction++) {
+            int neighbourIndex = cellIndex + offsets[direction];
+            boolean firstSide = passableCells[cellIndex + this.firstSideOffsets[direction]];
+            boolean secondSide = passableCells[cellIndex + this.secondSideOffsets[direction]];
+            boolean cornerFree = cornerCuttingAllowed
+                | (bothSidesRequired ? firstSide & secondSide : firstSide | secondSide);
+
+            neighbourhood.set(size, cells[neighbourIndex], this.stepFactors[direction]);
+            size += passableCells[neighbourIndex] & cornerFree ? 1 : 0;
+        }
+        neighbourhood.setSize(size);
+    }
+
     /**
      * Resets the territory map to its original appearance by reseting each {@link Node}.
      */
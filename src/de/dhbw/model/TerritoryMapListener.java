@@ -0,0 +1,24 @@
+package de.dhbw.model;
+
+/**
+ * A TerritoryMapListener is notified whenever the passability or the costs of the {@link Node}s of a
+ * {@link TerritoryMap} change.
+ */
+public interface TerritoryMapListener {
+
+    /**
+     * Called after the description code of a single {@link Node} has been changed.
+     *
+     * @param node
+     *            the changed {@link Node}
+     * @param wasPassable
+     *            whether the {@link Node} was passable before the change
+     */
+    void nodeChanged(Node node, boolean wasPassable);
+
+    /**
+     * Called after the passability of an arbitrary number of {@link Node}s may have been changed.
+     */
+    void territoryChanged();
+
+}
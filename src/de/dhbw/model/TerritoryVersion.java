@@ -0,0 +1,246 @@
+package de.dhbw.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dhbw.exceptions.NodeOutOfBoundsException;
+
+/**
+ * A TerritoryVersion is an immutable snapshot of the description codes of a territory. The codes are stored in square
+ * tiles, and a new version created by {@link VersionedTerritory} only copies the tiles that contain changed codes. All
+ * other tiles are shared with the previous version, so the memory of a new version grows only with its changes.
+ * <p>
+ * A snapshot cannot be searched directly, because the search stores its state in the {@link Node}s. Each query thread
+ * therefore keeps its own {@link TerritoryMap} and brings it to the state of a snapshot with
+ * {@link TerritoryMap#synchronize(TerritoryVersion)}.
+ */
+public final class TerritoryVersion {
+
+    static final int TILE_SIZE = 16;
+
+    private final long number;
+    private final int width;
+    private final int height;
+    private final int tileColumns;
+    private final int[][] tiles;
+    private final Map<Integer, Double> costsTable;
+
+    /**
+     * Creates the first version of a territory.
+     *
+     * @param matrix
+     *            the raw matrix
+     * @param costsTable
+     *            maps the description code of the matrix to its costs
+     */
+    TerritoryVersion(List<List<Integer>> matrix, Map<Integer, Double> costsTable) {
+        this.number = 0;
+        this.height = matrix.size();
+        this.width = matrix.get(0).size();
+        this.tileColumns = (this.width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tiles = new int[this.tileColumns * ((this.height + TILE_SIZE - 1) / TILE_SIZE)][TILE_SIZE * TILE_SIZE];
+        this.costsTable = Collections.unmodifiableMap(new HashMap<>(costsTable));
+
+        for (int y = 1; y <= this.height; y++) {
+            for (int x = 1; x <= this.width; x++) {
+                this.tiles[this.toTileIndex(x, y)][this.toOffset(x, y)] = matrix.get(y - 1).get(x - 1);
+            }
+        }
+    }
+
+    /**
+     * Creates the successor of a version with the given tiles.
+     *
+     * @param previous
+     *            the previous version
+     * @param tiles
+     *            the tiles of the new version, mostly shared with the previous version
+     */
+    private TerritoryVersion(TerritoryVersion previous, int[][] tiles) {
+        this.number = previous.number + 1;
+        this.width = previous.width;
+        this.height = previous.height;
+        this.tileColumns = previous.tileColumns;
+        this.tiles = tiles;
+        this.costsTable = previous.costsTable;
+    }
+
+    /**
+     * Returns the number of the version, which is increased by one for each published update.
+     *
+     * @return number
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the width of the territory.
+     *
+     * @return width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the territory.
+     *
+     * @return height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the costs table that maps the description codes to their costs.
+     *
+     * @return costsTable
+     */
+    public Map<Integer, Double> getCostsTable() {
+        return costsTable;
+    }
+
+    /**
+     * Returns the description code at the given coordinates.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the description code
+     */
+    public int getCode(int xCoordinate, int yCoordinate) {
+        return this.tiles[this.toTileIndex(xCoordinate, yCoordinate)][this.toOffset(xCoordinate, yCoordinate)];
+    }
+
+    /**
+     * Returns the description codes as raw matrix.
+     *
+     * @return a list of lists of Integers that represents raw matrix with the description code values
+     */
+    public List<List<Integer>> toMatrix() {
+        List<List<Integer>> matrix = new ArrayList<>();
+        for (int y = 1; y <= this.height; y++) {
+            List<Integer> line = new ArrayList<>();
+            for (int x = 1; x <= this.width; x++) {
+                line.add(this.getCode(x, y));
+            }
+            matrix.add(line);
+        }
+        return matrix;
+    }
+
+    /**
+     * Checks whether a {@link Node} is within the bounds of the territory.
+     *
+     * @param node
+     *            the {@link Node} that should be checked
+     * @throws NodeOutOfBoundsException
+     *             if the {@link Node} is not within the bounds of the territory
+     */
+    void checkNodeMembership(Node node) throws NodeOutOfBoundsException {
+        if (node.getXCoordinate() < 1 || node.getXCoordinate() > this.width || node.getYCoordinate() < 1
+            || node.getYCoordinate() > this.height) {
+            throw new NodeOutOfBoundsException("The node is out of the bounds of the TerritoryMap " + node);
+        }
+    }
+
+    /**
+     * Creates the successor of this version with changed description codes. Each tile that contains a change is copied
+     * once, all other tiles are shared.
+     *
+     * @param codes
+     *            maps the {@link Node}s to their new description codes
+     * @return the new version
+     */
+    TerritoryVersion withCodes(Map<Node, Integer> codes) {
+        int[][] tiles = this.tiles.clone();
+        boolean[] copied = new boolean[tiles.length];
+        for (Map.Entry<Node, Integer> entry : codes.entrySet()) {
+            int x = entry.getKey().getXCoordinate();
+            int y = entry.getKey().getYCoordinate();
+            int tileIndex = this.toTileIndex(x, y);
+            if (!copied[tileIndex]) {
+                tiles[tileIndex] = tiles[tileIndex].clone();
+                copied[tileIndex] = true;
+            }
+            tiles[tileIndex][this.toOffset(x, y)] = entry.getValue();
+        }
+        return new TerritoryVersion(this, tiles);
+    }
+
+    /**
+     * Returns the number of tiles.
+     *
+     * @return the number of tiles
+     */
+    int getTileCount() {
+        return this.tiles.length;
+    }
+
+    /**
+     * Checks whether a tile is shared with another version, which means that its codes are identical.
+     *
+     * @param other
+     *            the other version of the same territory
+     * @param tileIndex
+     *            the index of the tile
+     * @return true if both versions share the tile
+     */
+    boolean sharesTile(TerritoryVersion other, int tileIndex) {
+        return this.tiles[tileIndex] == other.tiles[tileIndex];
+    }
+
+    /**
+     * Returns the x coordinate of the left column of a tile.
+     *
+     * @param tileIndex
+     *            the index of the tile
+     * @return the x coordinate, starting at 1
+     */
+    int getTileXCoordinate(int tileIndex) {
+        return (tileIndex % this.tileColumns) * TILE_SIZE + 1;
+    }
+
+    /**
+     * Returns the y coordinate of the upper row of a tile.
+     *
+     * @param tileIndex
+     *            the index of the tile
+     * @return the y coordinate, starting at 1
+     */
+    int getTileYCoordinate(int tileIndex) {
+        return (tileIndex / this.tileColumns) * TILE_SIZE + 1;
+    }
+
+    /**
+     * Converts coordinates to the index of their tile.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the index of the tile
+     */
+    private int toTileIndex(int xCoordinate, int yCoordinate) {
+        return ((yCoordinate - 1) / TILE_SIZE) * this.tileColumns + (xCoordinate - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Converts coordinates to the offset within their tile.
+     *
+     * @param xCoordinate
+     *            the x coordinate, starting at 1
+     * @param yCoordinate
+     *            the y coordinate, starting at 1
+     * @return the offset within the tile
+     */
+    private int toOffset(int xCoordinate, int yCoordinate) {
+        return ((yCoordinate - 1) % TILE_SIZE) * TILE_SIZE + (xCoordinate - 1) % TILE_SIZE;
+    }
+
+}
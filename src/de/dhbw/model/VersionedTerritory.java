@@ -0,0 +1,78 @@
+package de.dhbw.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.dhbw.exceptions.NodeOutOfBoundsException;
+
+/**
+ * A VersionedTerritory publishes the current {@link TerritoryVersion} of a territory. Queries pin a snapshot by reading
+ * the current version without any lock, while updates create a new version and publish it atomically. Concurrent
+ * updates are retried on the newest version, so no update gets lost.
+ */
+public class VersionedTerritory {
+
+    private final AtomicReference<TerritoryVersion> currentVersion;
+
+    /**
+     * Creates the territory with the description matrix and the costs table as first version.
+     *
+     * @param matrix
+     *            the raw matrix
+     * @param costsTable
+     *            maps the description code of the matrix to its costs
+     */
+    public VersionedTerritory(List<List<Integer>> matrix, Map<Integer, Double> costsTable) {
+        this.currentVersion = new AtomicReference<>(new TerritoryVersion(matrix, costsTable));
+    }
+
+    /**
+     * Returns the current version. The snapshot never changes, even if updates are published later.
+     *
+     * @return the current {@link TerritoryVersion}
+     */
+    public TerritoryVersion getSnapshot() {
+        return this.currentVersion.get();
+    }
+
+    /**
+     * Changes the description code of a single {@link Node} and publishes a new version.
+     *
+     * @param node
+     *            the {@link Node} whose description code should be changed
+     * @param code
+     *            the new description code
+     * @return the published {@link TerritoryVersion}
+     * @throws NodeOutOfBoundsException
+     *             if the {@link Node} is not within the bounds of the territory
+     */
+    public TerritoryVersion update(Node node, int code) throws NodeOutOfBoundsException {
+        return this.update(Collections.singletonMap(node, code));
+    }
+
+    /**
+     * Changes the description codes of several {@link Node}s and publishes all changes as a single new version.
+     *
+     * @param codes
+     *            maps the {@link Node}s to their new description codes
+     * @return the published {@link TerritoryVersion}
+     * @throws NodeOutOfBoundsException
+     *             if one of the {@link Node}s is not within the bounds of the territory
+     */
+    public TerritoryVersion update(Map<Node, Integer> codes) throws NodeOutOfBoundsException {
+        for (Node node : codes.keySet()) {
+            this.currentVersion.get().checkNodeMembership(node);
+        }
+
+        TerritoryVersion previousVersion;
+        TerritoryVersion nextVersion;
+        do {
+            previousVersion = this.currentVersion.get();
+            nextVersion = previousVersion.withCodes(codes);
+        } while (!this.currentVersion.compareAndSet(previousVersion, nextVersion));
+        return nextVersion;
+    }
+
+}